@@ -1,21 +1,99 @@
 package platform;
 
 import platform.models.User;
-import platform.utils.IOUtils;
 
 import java.util.Scanner;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class AuthService {
+    public static final int DEFAULT_LOGIN_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    public static final int DEFAULT_LOGIN_QUEUE = 64;
+
     private Platform platform;
+    private final PasswordHasher hasher;
+    private final SessionStore sessions;
+    private final ThreadPoolExecutor loginPool;
 
     public AuthService(Platform platform) {
+        this(platform, new PasswordHasher(), new SessionStore(), DEFAULT_LOGIN_THREADS, DEFAULT_LOGIN_QUEUE);
+    }
+
+    /**
+     * Password checks run on a fixed pool of {@code loginThreads} with at most
+     * {@code loginQueue} waiting; further logins are rejected rather than queued,
+     * so a burst of logins can't pile up behind the KDF.
+     */
+    public AuthService(Platform platform, PasswordHasher hasher, SessionStore sessions, int loginThreads, int loginQueue) {
         this.platform = platform;
+        this.hasher = hasher;
+        this.sessions = sessions;
+        AtomicInteger n = new AtomicInteger();
+        this.loginPool = new ThreadPoolExecutor(loginThreads, loginThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(loginQueue), r -> {
+                    Thread t = new Thread(r, "login-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
     }
 
     public Platform getPlatform() {
         return platform;
     }
 
+    public SessionStore getSessions() {
+        return sessions;
+    }
+
+    /* --------- Sessions --------- */
+
+    /**
+     * Checks the password off the calling thread. Completes with a new session,
+     * or with null if the username or password is wrong. Completes exceptionally
+     * with {@link RejectedExecutionException} when too many logins are pending.
+     */
+    public CompletableFuture<Session> login(String username, String password) {
+        try {
+            return CompletableFuture.supplyAsync(() -> checkCredentials(username, password), loginPool);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<Session> f = new CompletableFuture<>();
+            f.completeExceptionally(e);
+            return f;
+        }
+    }
+
+    private Session checkCredentials(String username, String password) {
+        User u = platform.getUser(username);
+        if (u == null) {
+            hasher.dummyVerify(password);
+            return null;
+        }
+        String stored = u.getPasswordHash();
+        if (!hasher.verify(password, stored)) return null;
+        if (hasher.needsRehash(stored)) {
+            String upgraded = hasher.hash(password);
+            synchronized (platform) {
+                u.setPasswordHash(upgraded);
+            }
+        }
+        return sessions.create(u.getUsername());
+    }
+
+    /** The user behind a session token, or null if it is unknown or expired. */
+    public User authenticate(String token) {
+        Session s = sessions.validate(token);
+        return s == null ? null : platform.getUser(s.getUsername());
+    }
+
+    public void logout(String token) {
+        sessions.invalidate(token);
+    }
+
+    public void logoutAll(String username) {
+        sessions.invalidateUser(username);
+    }
+
+    /* --------- Console flows --------- */
     public void registerInteractive(Scanner sc) {
         System.out.print("Choose username: ");
         String username = sc.nextLine().trim();
@@ -35,28 +113,41 @@ public class AuthService {
         }
         System.out.print("Display name (optional): ");
         String disp = sc.nextLine().trim();
-        User u = new User(username, IOUtils.hash(pass), disp.isEmpty() ? username : disp);
+        User u = new User(username, hasher.hash(pass), disp.isEmpty() ? username : disp);
         platform.addUser(u);
         platform.saveData();
         System.out.println("Registered successfully. You can login now.");
     }
 
-    public User loginInteractive(Scanner sc) {
+    /**
+     * Prompts for credentials and returns the new session, or null if login
+     * failed. Pass its token to {@link Platform#userMenu}.
+     */
+    public Session loginInteractive(Scanner sc) {
         System.out.print("Username: ");
         String username = sc.nextLine().trim();
         System.out.print("Password: ");
         String pass = sc.nextLine().trim();
-        User u = platform.getUser(username);
-        if (u == null) {
-            System.out.println("No such user.");
+        Session s;
+        try {
+            s = login(username, pass).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                System.out.println("Too many logins in progress. Try again shortly.");
+            } else {
+                System.out.println("Login failed: " + e.getCause());
+            }
             return null;
         }
-        if (u.getPasswordHash().equals(IOUtils.hash(pass))) {
-            System.out.println("Login successful. Welcome " + u.getDisplayName());
-            return u;
-        } else {
-            System.out.println("Wrong password.");
+        if (s == null) {
+            System.out.println("Wrong username or password.");
             return null;
         }
+        User u = platform.getUser(s.getUsername());
+        System.out.println("Login successful. Welcome " + u.getDisplayName());
+        return s;
     }
 }
@@ -0,0 +1,118 @@
+package platform;
+
+import platform.models.Recipe;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * Prefix tries over the title, tag and ingredient vocabularies. Each term is
+ * weighted by how many recipes use it plus the likes those recipes have.
+ */
+public class AutocompleteIndex {
+    public enum Field {
+        TITLE,
+        TAG,
+        INGREDIENT
+    }
+
+    private final Map<Field, PrefixTrie> tries = new EnumMap<>(Field.class);
+
+    public AutocompleteIndex() {
+        for (Field f : Field.values()) tries.put(f, new PrefixTrie());
+    }
+
+    /* --------- Maintenance --------- */
+    public void add(Recipe r) {
+        apply(r, 1, r.getLikes().size());
+    }
+
+    /** Must see the same content the recipe was added with. */
+    public void remove(Recipe r) {
+        apply(r, -1, -r.getLikes().size());
+    }
+
+    public void likeToggled(Recipe r, boolean liked) {
+        apply(r, 0, liked ? 1 : -1);
+    }
+
+    private void apply(Recipe r, int countDelta, long likesDelta) {
+        for (Field f : Field.values()) {
+            PrefixTrie trie = tries.get(f);
+            for (String term : terms(r, f)) trie.adjust(term, countDelta, likesDelta);
+        }
+    }
+
+    /* --------- Query --------- */
+    public List<String> suggest(Field field, String prefix, int k) {
+        return tries.get(field).suggest(normalize(prefix), Math.min(k, PrefixTrie.MAX_K));
+    }
+
+    /**
+     * Index-free fallback used while the index is being rebuilt.
+     */
+    public static List<String> scan(Collection<Recipe> recipes, Field field, String prefix, int k) {
+        String p = normalize(prefix);
+        Map<String, Long> weights = new HashMap<>();
+        for (Recipe r : recipes) {
+            for (String term : terms(r, field)) {
+                if (term.startsWith(p)) weights.merge(term, 1L + r.getLikes().size(), Long::sum);
+            }
+        }
+        List<String> out = new ArrayList<>(weights.keySet());
+        out.sort(Comparator.comparing((String t) -> weights.get(t)).reversed().thenComparing(t -> t));
+        return out.size() > k ? new ArrayList<>(out.subList(0, k)) : out;
+    }
+
+    /* --------- Vocabulary --------- */
+    static Set<String> terms(Recipe r, Field f) {
+        Set<String> out = new HashSet<>();
+        switch (f) {
+            case TITLE:
+                out.add(normalize(r.getTitle()));
+                break;
+            case TAG:
+                for (String t : r.getTags()) out.add(normalize(t));
+                break;
+            case INGREDIENT:
+                for (String ing : r.getIngredients()) out.add(SimilarityIndex.normalizeIngredient(ing));
+                break;
+        }
+        out.remove("");
+        return out;
+    }
+
+    private static String normalize(String s) {
+        return s == null ? "" : s.trim().toLowerCase().replaceAll("\\s+", " ");
+    }
+
+    /* --------- Persistence --------- */
+    void writeTo(DataOutputStream out) throws IOException {
+        for (Field f : Field.values()) {
+            PrefixTrie trie = tries.get(f);
+            out.writeInt(trie.size());
+            trie.forEach((term, count, likes) -> {
+                IndexStore.writeString(out, term);
+                out.writeInt(count);
+                out.writeLong(likes);
+            });
+        }
+    }
+
+    static AutocompleteIndex readFrom(ByteBuffer buf) {
+        AutocompleteIndex idx = new AutocompleteIndex();
+        for (Field f : Field.values()) {
+            PrefixTrie trie = idx.tries.get(f);
+            int n = buf.getInt();
+            for (int i = 0; i < n; i++) {
+                String term = IndexStore.readString(buf);
+                int count = buf.getInt();
+                trie.put(term, count, buf.getLong());
+            }
+            trie.refreshAll();
+        }
+        return idx;
+    }
+}
@@ -0,0 +1,49 @@
+package platform;
+
+import java.time.LocalDateTime;
+
+/**
+ * A single mutation published on the {@link ChangeStream}.
+ * Sequence numbers are strictly increasing across the life of the data file.
+ */
+public final class ChangeEvent {
+    public enum Type {
+        RECIPE_ADDED,
+        RECIPE_EDITED,
+        RECIPE_DELETED,
+        LIKE_TOGGLED,
+        COMMENT_ADDED,
+        USER_FOLLOWED
+    }
+
+    public static final int NO_RECIPE = -1;
+
+    private final long seq;
+    private final Type type;
+    private final int recipeId;
+    private final String username; // who made the change
+    private final String detail;   // liked/unliked, followed username, comment text
+    private final LocalDateTime timestamp;
+
+    public ChangeEvent(long seq, Type type, int recipeId, String username, String detail, LocalDateTime timestamp) {
+        this.seq = seq;
+        this.type = type;
+        this.recipeId = recipeId;
+        this.username = username;
+        this.detail = detail;
+        this.timestamp = timestamp;
+    }
+
+    public long getSeq() { return seq; }
+    public Type getType() { return type; }
+    public int getRecipeId() { return recipeId; }
+    public String getUsername() { return username; }
+    public String getDetail() { return detail; }
+    public LocalDateTime getTimestamp() { return timestamp; }
+
+    @Override
+    public String toString() {
+        return "#" + seq + " " + type + (recipeId == NO_RECIPE ? "" : " recipe=" + recipeId)
+                + " by " + username + (detail == null ? "" : " (" + detail + ")");
+    }
+}
@@ -0,0 +1,146 @@
+package platform;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ordered in-process stream of {@link ChangeEvent}s.
+ *
+ * Publishing never blocks: each subscriber has a bounded queue, and once it
+ * fills up the subscriber stops receiving pushes and instead pulls the
+ * missed events from the retained history as it drains. A subscriber that
+ * falls further behind than the retained history fails with
+ * {@link IllegalStateException} and has to resync from a full listing.
+ */
+public class ChangeStream {
+    public static final int DEFAULT_RETENTION = 4096;
+    public static final int DEFAULT_QUEUE_CAPACITY = 256;
+
+    private final int retention;
+    private final ArrayDeque<ChangeEvent> history = new ArrayDeque<>();
+    private final List<Subscription> subscribers = new CopyOnWriteArrayList<>();
+    private long lastSeq;
+
+    public ChangeStream() {
+        this(DEFAULT_RETENTION);
+    }
+
+    public ChangeStream(int retention) {
+        if (retention <= 0) throw new IllegalArgumentException("retention must be positive");
+        this.retention = retention;
+    }
+
+    /* --------- Publishing --------- */
+    public synchronized ChangeEvent publish(ChangeEvent.Type type, int recipeId, String username, String detail) {
+        ChangeEvent e = new ChangeEvent(++lastSeq, type, recipeId, username, detail, LocalDateTime.now());
+        history.addLast(e);
+        if (history.size() > retention) history.removeFirst();
+        for (Subscription s : subscribers) s.push(e);
+        return e;
+    }
+
+    public synchronized long getLastSeq() {
+        return lastSeq;
+    }
+
+    /**
+     * Continues numbering after a previously persisted sequence number.
+     * Events from before the restart are not retained.
+     */
+    public synchronized void restoreSequence(long seq) {
+        if (seq > lastSeq) lastSeq = seq;
+    }
+
+    /* --------- Subscribing --------- */
+    public Subscription subscribe() {
+        return subscribe(getLastSeq(), DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Subscribes to every event with a sequence number greater than {@code afterSeq}.
+     * Pass the last sequence number a client has seen to resume where it left off.
+     */
+    public synchronized Subscription subscribe(long afterSeq, int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+        if (afterSeq > lastSeq) throw new IllegalArgumentException("Unknown sequence number: " + afterSeq);
+        Subscription s = new Subscription(afterSeq, capacity);
+        s.lagging = afterSeq < lastSeq;
+        if (s.lagging) s.catchUp();
+        subscribers.add(s);
+        return s;
+    }
+
+    private synchronized List<ChangeEvent> eventsAfter(long seq, int max) {
+        if (seq < lastSeq && (history.isEmpty() || history.peekFirst().getSeq() > seq + 1)) {
+            throw new IllegalStateException("Events after #" + seq + " are no longer retained");
+        }
+        List<ChangeEvent> out = new ArrayList<>();
+        for (ChangeEvent e : history) {
+            if (out.size() >= max) break;
+            if (e.getSeq() > seq) out.add(e);
+        }
+        return out;
+    }
+
+    public class Subscription implements AutoCloseable {
+        private final BlockingQueue<ChangeEvent> queue;
+        private long lastQueuedSeq;
+        private volatile boolean lagging;
+
+        private Subscription(long afterSeq, int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.lastQueuedSeq = afterSeq;
+        }
+
+        // called with the stream lock held
+        private void push(ChangeEvent e) {
+            if (lagging) return;
+            if (queue.offer(e)) lastQueuedSeq = e.getSeq();
+            else lagging = true;
+        }
+
+        private void catchUp() {
+            synchronized (ChangeStream.this) {
+                for (ChangeEvent e : eventsAfter(lastQueuedSeq, queue.remainingCapacity())) {
+                    queue.add(e);
+                    lastQueuedSeq = e.getSeq();
+                }
+                if (lastQueuedSeq == lastSeq) lagging = false;
+            }
+        }
+
+        /** Next event, or null if none arrives within the timeout. */
+        public ChangeEvent poll(long timeout, TimeUnit unit) throws InterruptedException {
+            if (lagging) catchUp();
+            return queue.poll(timeout, unit);
+        }
+
+        public ChangeEvent take() throws InterruptedException {
+            if (lagging) catchUp();
+            return queue.take();
+        }
+
+        /** Moves every currently available event into {@code sink}. */
+        public int drainTo(Collection<? super ChangeEvent> sink) {
+            int n = 0;
+            do {
+                if (lagging) catchUp();
+                n += queue.drainTo(sink);
+            } while (lagging);
+            return n;
+        }
+
+        public boolean isLagging() {
+            return lagging;
+        }
+
+        @Override
+        public void close() {
+            subscribers.remove(this);
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package platform;
+
+import platform.models.User;
+
+import java.util.*;
+
+/**
+ * Follow relationships in both directions, stored as compressed sparse rows:
+ * for every user, a sorted slice of an int array holds the ids they follow
+ * (and, in a second pair of arrays, the ids following them). New follows go
+ * into a per-user delta and are merged into the arrays once all deltas
+ * together grow past a fraction of the graph.
+ */
+public class FollowGraph {
+    private static final int MIN_MERGE = 1024;
+    private static final int SUGGEST_FANOUT = 256; // followees sampled per hop
+    private static final int DELTA_TAIL = 64;      // min unsorted follows per user before they are folded in
+
+    private final Map<String, Integer> ids = new HashMap<>(); // lowercase username -> node id
+    private final List<String> names = new ArrayList<>();     // node id -> username
+
+    private Rows out = new Rows(new int[]{0}, new int[0]);
+    private Rows in = new Rows(new int[]{0}, new int[0]);
+    private final Map<Integer, Delta> outDelta = new HashMap<>();
+    private final Map<Integer, Delta> inDelta = new HashMap<>();
+    private int deltaEdges;
+
+    private int[] followingCount = new int[16];
+    private int[] followerCount = new int[16];
+
+    public static FollowGraph build(Collection<User> users) {
+        FollowGraph g = new FollowGraph();
+        for (User u : users) g.node(u.getUsername()); // so display names keep their original case
+        List<int[]> edges = new ArrayList<>();
+        for (User u : users) {
+            int from = g.node(u.getUsername());
+            for (String other : u.getFollowing()) {
+                int to = g.node(other);
+                if (from != to) edges.add(new int[]{from, to});
+            }
+        }
+        int n = g.names.size();
+        for (int[] e : edges) {
+            g.followingCount[e[0]]++;
+            g.followerCount[e[1]]++;
+        }
+        g.out = Rows.build(n, g.followingCount, edges, 0, 1);
+        g.in = Rows.build(n, g.followerCount, edges, 1, 0);
+        return g;
+    }
+
+    /* --------- Updates --------- */
+    public boolean follow(String from, String to) {
+        int a = node(from), b = node(to);
+        if (a == b || follows(a, b)) return false;
+        outDelta.computeIfAbsent(a, k -> new Delta()).add(b);
+        inDelta.computeIfAbsent(b, k -> new Delta()).add(a);
+        followingCount[a]++;
+        followerCount[b]++;
+        if (++deltaEdges > Math.max(MIN_MERGE, out.edges() / 8)) merge();
+        return true;
+    }
+
+    /** Folds the delta into fresh row arrays. */
+    public void merge() {
+        if (deltaEdges == 0) return;
+        out = out.merge(names.size(), followingCount, outDelta);
+        in = in.merge(names.size(), followerCount, inDelta);
+        outDelta.clear();
+        inDelta.clear();
+        deltaEdges = 0;
+    }
+
+    private int node(String username) {
+        String key = username.toLowerCase();
+        Integer id = ids.get(key);
+        if (id != null) return id;
+        int n = names.size();
+        ids.put(key, n);
+        names.add(username);
+        if (n >= followingCount.length) {
+            followingCount = Arrays.copyOf(followingCount, n * 2);
+            followerCount = Arrays.copyOf(followerCount, n * 2);
+        }
+        return n;
+    }
+
+    /* --------- Queries --------- */
+    public int followingCount(String username) {
+        Integer id = ids.get(username.toLowerCase());
+        return id == null ? 0 : followingCount[id];
+    }
+
+    public int followerCount(String username) {
+        Integer id = ids.get(username.toLowerCase());
+        return id == null ? 0 : followerCount[id];
+    }
+
+    public boolean follows(String from, String to) {
+        Integer a = ids.get(from.toLowerCase()), b = ids.get(to.toLowerCase());
+        return a != null && b != null && follows(a, b);
+    }
+
+    public boolean isMutual(String a, String b) {
+        return follows(a, b) && follows(b, a);
+    }
+
+    public List<String> following(String username) {
+        Integer id = ids.get(username.toLowerCase());
+        return id == null ? new ArrayList<>() : toNames(neighbours(out, outDelta, id));
+    }
+
+    public List<String> followers(String username) {
+        return followers(username, Integer.MAX_VALUE);
+    }
+
+    /** The first {@code limit} followers, without materializing the rest. */
+    public List<String> followers(String username, int limit) {
+        Integer id = ids.get(username.toLowerCase());
+        return id == null ? new ArrayList<>() : toNames(neighbours(in, inDelta, id, limit));
+    }
+
+    /**
+     * "People you may know": users followed by the people {@code username}
+     * follows, ranked by how many of them follow each candidate. For users
+     * with very large followings only an evenly spaced sample of
+     * {@value #SUGGEST_FANOUT} followees per hop is walked.
+     */
+    public List<String> suggest(String username, int k) {
+        Integer self = ids.get(username.toLowerCase());
+        if (self == null || k <= 0) return new ArrayList<>();
+        Map<Integer, Integer> mutuals = new HashMap<>();
+        for (int v : sample(out, outDelta, self)) {
+            for (int w : sample(out, outDelta, v)) {
+                if (w != self && !follows(self, w)) mutuals.merge(w, 1, Integer::sum);
+            }
+        }
+        Comparator<Integer> worstFirst = Comparator
+                .comparing((Integer w) -> mutuals.get(w))
+                .thenComparingInt(w -> followerCount[w])
+                .thenComparing(w -> names.get(w), Comparator.reverseOrder());
+        PriorityQueue<Integer> heap = new PriorityQueue<>(Math.min(k, mutuals.size()) + 1, worstFirst);
+        for (int w : mutuals.keySet()) {
+            heap.add(w);
+            if (heap.size() > k) heap.poll();
+        }
+        List<Integer> best = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) best.add(heap.poll());
+        Collections.reverse(best);
+        return toNames(best);
+    }
+
+    private boolean follows(int a, int b) {
+        if (out.contains(a, b)) return true;
+        Delta d = outDelta.get(a);
+        return d != null && d.contains(b);
+    }
+
+    private static int[] neighbours(Rows rows, Map<Integer, Delta> delta, int id) {
+        return neighbours(rows, delta, id, Integer.MAX_VALUE);
+    }
+
+    private static int[] neighbours(Rows rows, Map<Integer, Delta> delta, int id, int limit) {
+        int n = Math.max(0, Math.min(limit, degree(rows, delta, id)));
+        int[] out = new int[n];
+        for (int j = 0; j < n; j++) out[j] = neighbour(rows, delta, id, j);
+        return out;
+    }
+
+    // up to SUGGEST_FANOUT evenly spaced neighbours, read in place rather than copying the row
+    private static int[] sample(Rows rows, Map<Integer, Delta> delta, int id) {
+        int n = degree(rows, delta, id);
+        if (n <= SUGGEST_FANOUT) return neighbours(rows, delta, id);
+        int[] out = new int[SUGGEST_FANOUT];
+        double step = (double) n / SUGGEST_FANOUT;
+        for (int i = 0; i < SUGGEST_FANOUT; i++) out[i] = neighbour(rows, delta, id, (int) (i * step));
+        return out;
+    }
+
+    private static int degree(Rows rows, Map<Integer, Delta> delta, int id) {
+        Delta d = delta.get(id);
+        return rows.degree(id) + (d == null ? 0 : d.size());
+    }
+
+    // the j-th neighbour: merged row first, then the delta
+    private static int neighbour(Rows rows, Map<Integer, Delta> delta, int id, int j) {
+        int base = rows.degree(id);
+        return j < base ? rows.targets[rows.offsets[id] + j] : delta.get(id).get(j - base);
+    }
+
+    private List<String> toNames(int[] nodeIds) {
+        List<String> out = new ArrayList<>(nodeIds.length);
+        for (int id : nodeIds) out.add(names.get(id));
+        return out;
+    }
+
+    private List<String> toNames(List<Integer> nodeIds) {
+        List<String> out = new ArrayList<>(nodeIds.size());
+        for (int id : nodeIds) out.add(names.get(id));
+        return out;
+    }
+
+    /* ---- CSR rows: node i's sorted neighbours are targets[offsets[i] .. offsets[i+1]) ---- */
+    private static final class Rows {
+        final int[] offsets;
+        final int[] targets;
+
+        Rows(int[] offsets, int[] targets) {
+            this.offsets = offsets;
+            this.targets = targets;
+        }
+
+        int nodes() {
+            return offsets.length - 1;
+        }
+
+        int edges() {
+            return targets.length;
+        }
+
+        int degree(int id) {
+            return id < nodes() ? offsets[id + 1] - offsets[id] : 0;
+        }
+
+        boolean contains(int id, int target) {
+            if (id >= nodes()) return false;
+            return Arrays.binarySearch(targets, offsets[id], offsets[id + 1], target) >= 0;
+        }
+
+        static Rows build(int n, int[] degree, List<int[]> edges, int fromCol, int toCol) {
+            int[] offsets = prefixSums(n, degree);
+            int[] targets = new int[offsets[n]];
+            int[] fill = Arrays.copyOf(offsets, n);
+            for (int[] e : edges) targets[fill[e[fromCol]]++] = e[toCol];
+            for (int i = 0; i < n; i++) Arrays.sort(targets, offsets[i], offsets[i + 1]);
+            return new Rows(offsets, targets);
+        }
+
+        // degree already counts the delta edges
+        Rows merge(int n, int[] degree, Map<Integer, Delta> delta) {
+            int[] nextOffsets = prefixSums(n, degree);
+            int[] nextTargets = new int[nextOffsets[n]];
+            for (int i = 0; i < n; i++) {
+                int pos = nextOffsets[i];
+                if (i < nodes()) {
+                    int len = offsets[i + 1] - offsets[i];
+                    System.arraycopy(targets, offsets[i], nextTargets, pos, len);
+                    pos += len;
+                }
+                Delta d = delta.get(i);
+                if (d != null) {
+                    d.copyTo(nextTargets, pos);
+                    Arrays.sort(nextTargets, nextOffsets[i], nextOffsets[i + 1]);
+                }
+            }
+            return new Rows(nextOffsets, nextTargets);
+        }
+
+        private static int[] prefixSums(int n, int[] degree) {
+            int[] offsets = new int[n + 1];
+            for (int i = 0; i < n; i++) offsets[i + 1] = offsets[i] + degree[i];
+            return offsets;
+        }
+    }
+
+    /* ---- One user's follows since the last merge: a sorted run plus a short unsorted tail ---- */
+    private static final class Delta {
+        int[] sorted = new int[0];
+        int sortedSize;
+        int[] tail = new int[4];
+        int tailSize;
+
+        void add(int id) {
+            if (tailSize == tail.length) tail = Arrays.copyOf(tail, tailSize * 2);
+            tail[tailSize++] = id;
+            // a tail of ~sqrt(run) keeps both the folds and the tail scans in contains() short
+            if (tailSize >= Math.max(DELTA_TAIL, (int) Math.sqrt(sortedSize))) fold();
+        }
+
+        boolean contains(int id) {
+            if (Arrays.binarySearch(sorted, 0, sortedSize, id) >= 0) return true;
+            for (int i = 0; i < tailSize; i++) if (tail[i] == id) return true;
+            return false;
+        }
+
+        int size() {
+            return sortedSize + tailSize;
+        }
+
+        int get(int i) {
+            return i < sortedSize ? sorted[i] : tail[i - sortedSize];
+        }
+
+        void copyTo(int[] dst, int pos) {
+            System.arraycopy(sorted, 0, dst, pos, sortedSize);
+            System.arraycopy(tail, 0, dst, pos + sortedSize, tailSize);
+        }
+
+        // merges the tail into the sorted run, back to front and in place
+        private void fold() {
+            Arrays.sort(tail, 0, tailSize);
+            int n = sortedSize + tailSize;
+            if (n > sorted.length) sorted = Arrays.copyOf(sorted, Math.max(n, sorted.length * 2));
+            int i = sortedSize - 1, j = tailSize - 1, k = n - 1;
+            while (j >= 0) sorted[k--] = i >= 0 && sorted[i] > tail[j] ? sorted[i--] : tail[j--];
+            sortedSize = n;
+            tailSize = 0;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package platform;
+
+import platform.models.Recipe;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Saves {@link RecipeIndexes} next to the data file so startup can skip
+ * rebuilding them.
+ *
+ * Layout: magic, format version, data fingerprint, index payload, then a
+ * CRC32 of everything before it. A file with the wrong magic, version,
+ * checksum or fingerprint is treated as missing.
+ *
+ * Loaded indexes keep reading from the mapped file, so a save never replaces
+ * it: each save writes the next generation ({@code <path>.1}, {@code <path>.2},
+ * ...) and then deletes the older ones it can. Windows refuses to delete a
+ * file that is still mapped; those are retried on a later save.
+ */
+public class IndexStore {
+    public static final String INDEX_FILE = "platform_indexes.idx";
+    private static final int MAGIC = 0x56424958; // "VBIX"
+    private static final int VERSION = 3;
+
+    private final Path path;
+
+    public IndexStore() {
+        this(Paths.get(INDEX_FILE));
+    }
+
+    public IndexStore(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Cheap summary of the recipe data the indexes were built from. Any add,
+     * edit, delete or like changes it, which marks a persisted index as stale.
+     */
+    public static long fingerprint(Map<Integer, Recipe> recipes, int nextRecipeId) {
+        long fp = mix(nextRecipeId) ^ mix(recipes.size() + 0x9E3779B97F4A7C15L);
+        for (Recipe r : recipes.values()) {
+            LocalDateTime updated = r.getLastUpdated();
+            fp += mix(r.getId() * 31L + r.getCreatedAt().hashCode() * 17L + (updated == null ? 0 : updated.hashCode())
+                    + ((long) r.getLikes().size() << 40));
+        }
+        return fp;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    void save(RecipeIndexes indexes, long fingerprint) throws IOException {
+        List<Long> older = generations();
+        long gen = older.isEmpty() ? 1 : older.get(0) + 1;
+        Path target = generation(gen);
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new CheckedOutputStream(Files.newOutputStream(tmp), crc)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(fingerprint);
+            indexes.writeTo(out);
+            out.flush();
+            // the trailer itself is not part of the checksum
+            out.writeLong(crc.getValue());
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        for (long g : older) {
+            try {
+                Files.deleteIfExists(generation(g));
+            } catch (IOException e) {
+                // still mapped; a later save will get it
+            }
+        }
+    }
+
+    /**
+     * Memory-maps the index file and decodes it. Returns null if the file is
+     * missing, corrupt, from another format version, or built from other data.
+     */
+    RecipeIndexes load(long expectedFingerprint) {
+        List<Long> gens = generations();
+        if (gens.isEmpty()) return null;
+        try (FileChannel ch = FileChannel.open(generation(gens.get(0)), StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < 24) return null;
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            ByteBuffer body = buf.duplicate();
+            body.limit((int) size - 8);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            if (crc.getValue() != buf.getLong((int) size - 8)) return null;
+
+            if (buf.getInt() != MAGIC || buf.getInt() != VERSION) return null;
+            if (buf.getLong() != expectedFingerprint) return null;
+            buf.limit((int) size - 8);
+            RecipeIndexes idx = RecipeIndexes.readFrom(buf);
+            return buf.hasRemaining() ? null : idx;
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Ignoring unreadable index file: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private Path generation(long gen) {
+        return path.resolveSibling(path.getFileName() + "." + gen);
+    }
+
+    // saved generations, newest first
+    private List<Long> generations() {
+        List<Long> out = new ArrayList<>();
+        Path dir = path.toAbsolutePath().getParent();
+        String prefix = path.getFileName() + ".";
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, prefix + "*")) {
+            for (Path f : files) {
+                try {
+                    out.add(Long.parseLong(f.getFileName().toString().substring(prefix.length())));
+                } catch (NumberFormatException e) {
+                    // a leftover .tmp file
+                }
+            }
+        } catch (IOException e) {
+            return out;
+        }
+        out.sort(Collections.reverseOrder());
+        return out;
+    }
+
+    /* --------- Encoding helpers --------- */
+    static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    static String readString(ByteBuffer buf) {
+        byte[] b = new byte[buf.getInt()];
+        buf.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+}
@@ -1,5 +1,7 @@
 import javax.swing.*;
 import java.awt.*;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -16,6 +18,12 @@ class User {
 
     public String getName() { return name; }
     public String getEmail() { return email; }
+
+    // constant-time, so response timing doesn't leak how much of the password matched
+    public boolean checkPassword(String candidate) {
+        return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8),
+                candidate.getBytes(StandardCharsets.UTF_8));
+    }
 }
 
 class Recipe {
@@ -121,13 +129,14 @@ class Platform {
 class AuthService {
     private List<User> users = new ArrayList<>();
 
-    public void registerUser(String username, String password, String email) {
+    public synchronized void registerUser(String username, String password, String email) {
         users.add(new User(username, password, email));
     }
 
-    public User loginUser(String username, String password) {
+    // may be called off the EDT
+    public synchronized User loginUser(String username, String password) {
         for (User u : users)
-            if (u.getName().equals(username) && u.getEmail() != null)
+            if (u.getName().equals(username) && u.checkPassword(password))
                 return u;
         return null;
     }
@@ -218,13 +227,29 @@ public class MainGUI {
         if (result == JOptionPane.OK_OPTION) {
             String username = usernameField.getText().trim();
             String password = passwordField.getText();
-            User user = auth.loginUser(username, password);
-            if (user != null) {
-                JOptionPane.showMessageDialog(parent, "Welcome, " + user.getName() + "!");
-                platform.userMenuGUI(parent, user);
-            } else {
-                JOptionPane.showMessageDialog(parent, "Login failed.");
-            }
+            // check credentials off the EDT so the window stays responsive
+            new SwingWorker<User, Void>() {
+                @Override
+                protected User doInBackground() {
+                    return auth.loginUser(username, password);
+                }
+
+                @Override
+                protected void done() {
+                    User user;
+                    try {
+                        user = get();
+                    } catch (Exception ex) {
+                        user = null;
+                    }
+                    if (user != null) {
+                        JOptionPane.showMessageDialog(parent, "Welcome, " + user.getName() + "!");
+                        platform.userMenuGUI(parent, user);
+                    } else {
+                        JOptionPane.showMessageDialog(parent, "Login failed.");
+                    }
+                }
+            }.execute();
         }
     }
 
@@ -7,95 +7,266 @@ import platform.utils.IOUtils;
 
 import java.util.*;
 import java.util.stream.Collectors;
+import java.io.IOException;
 import java.io.Serializable;
+import java.time.Duration;
 import java.time.LocalDateTime;
 
 public class Platform implements Serializable {
     private static final long serialVersionUID = 1L;
 
+    public static final int DEFAULT_SEARCH_LIMIT = 20;
+    public static final int DEFAULT_SYNC_PAGE_SIZE = 100;
+    public static final Duration TOMBSTONE_RETENTION = Duration.ofDays(30);
+
     private Map<String, User> users; // username -> User
     private Map<Integer, Recipe> recipes; // recipeId -> Recipe
+    private Map<Integer, LocalDateTime> tombstones; // deleted recipeId -> deletion time
+    private LocalDateTime tombstoneHorizon; // latest deletion time already pruned, or null
     private int nextRecipeId = 1;
 
     private AuthService authService;
+    private transient RecipeIndexes indexes; // null while being rebuilt in the background
+    private transient IndexStore indexStore;
+    private transient FollowGraph followGraph;
+    private transient ChangeStream changes;
+    private transient Set<Integer> staleIds; // recipes changed while a rebuild is running
 
     public Platform() {
         users = new HashMap<>();
         recipes = new HashMap<>();
+        tombstones = new HashMap<>();
         authService = new AuthService(this);
+        indexes = new RecipeIndexes();
+        indexStore = new IndexStore();
+        followGraph = new FollowGraph();
+        changes = new ChangeStream();
     }
 
     public AuthService getAuthService() {
         return authService;
     }
 
+    /**
+     * Live feed of recipe, like, comment and follow changes, for clients that
+     * want to update incrementally instead of re-listing.
+     */
+    public ChangeStream getChangeStream() {
+        return changes;
+    }
+
     /* --------- Persistence --------- */
-    public void loadData() {
+    public synchronized void loadData() {
         PlatformData pd = IOUtils.load();
         if (pd != null) {
             this.users = pd.users;
             this.recipes = pd.recipes;
             this.nextRecipeId = pd.nextRecipeId;
+            this.tombstones = pd.tombstones != null ? pd.tombstones : new HashMap<>();
+            this.tombstoneHorizon = pd.tombstoneHorizon;
+            this.followGraph = FollowGraph.build(users.values());
+            changes.restoreSequence(pd.lastChangeSeq);
+            loadIndexes();
+            pruneTombstones();
             System.out.println("Loaded data: users=" + users.size() + " recipes=" + recipes.size());
         } else {
             System.out.println("No saved data found. Starting fresh.");
         }
     }
 
-    public void saveData() {
+    public synchronized void saveData() {
+        pruneTombstones();
         PlatformData pd = new PlatformData();
         pd.users = this.users;
         pd.recipes = this.recipes;
         pd.nextRecipeId = this.nextRecipeId;
+        pd.tombstones = this.tombstones;
+        pd.tombstoneHorizon = this.tombstoneHorizon;
+        pd.lastChangeSeq = changes.getLastSeq();
         IOUtils.save(pd);
+        if (indexes != null) {
+            try {
+                indexStore.save(indexes, IndexStore.fingerprint(recipes, nextRecipeId));
+            } catch (IOException e) {
+                System.out.println("Could not save indexes: " + e.getMessage());
+            }
+        }
+    }
+
+    private void loadIndexes() {
+        indexes = indexStore.load(IndexStore.fingerprint(recipes, nextRecipeId));
+        if (indexes == null) {
+            System.out.println("Indexes missing or stale, rebuilding in background. Searches will scan until then.");
+            startIndexRebuild();
+        }
+    }
+
+    /**
+     * Builds fresh indexes off the calling thread from a copy of the recipes.
+     * Recipes added, edited, liked or deleted meanwhile are collected in
+     * staleIds and re-indexed before the result is swapped in.
+     */
+    private void startIndexRebuild() {
+        staleIds = new HashSet<>();
+        Thread t = new Thread(() -> {
+            try {
+                Map<Integer, Recipe> snapshot = new HashMap<>();
+                Map<Integer, LocalDateTime> deleted;
+                synchronized (this) {
+                    for (Recipe r : recipes.values()) snapshot.put(r.getId(), copyForIndexing(r));
+                    deleted = new HashMap<>(tombstones);
+                }
+                RecipeIndexes built = RecipeIndexes.build(snapshot.values(), deleted);
+                synchronized (this) {
+                    for (int id : staleIds) {
+                        Recipe before = snapshot.get(id);
+                        if (before != null) built.remove(before);
+                        Recipe now = recipes.get(id);
+                        if (now != null) built.add(now);
+                        else if (tombstones.containsKey(id)) built.addTombstone(id, tombstones.get(id));
+                        else built.removeTombstone(id);
+                    }
+                    staleIds = null;
+                    indexes = built;
+                }
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    staleIds = null;
+                }
+                System.out.println("Index rebuild failed, searches will keep scanning: " + e);
+            }
+        }, "index-rebuild");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    // the build runs unlocked, so it reads copies rather than recipes that may be mid-edit
+    private static Recipe copyForIndexing(Recipe r) {
+        Recipe c = new Recipe(r.getId(), r.getTitle(), r.getDescription(), r.getAuthorUsername(),
+                r.getIngredients(), r.getSteps(), r.getTags(), r.getCreatedAt());
+        c.setLastUpdated(r.getLastUpdated());
+        c.getLikes().addAll(r.getLikes());
+        return c;
+    }
+
+    private void markStale(int id) {
+        if (staleIds != null) staleIds.add(id);
+    }
+
+    // forgets deletions older than TOMBSTONE_RETENTION; syncs from before them must start over
+    private void pruneTombstones() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(TOMBSTONE_RETENTION);
+        for (Iterator<Map.Entry<Integer, LocalDateTime>> it = tombstones.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Integer, LocalDateTime> e = it.next();
+            if (!e.getValue().isBefore(cutoff)) continue;
+            it.remove();
+            if (tombstoneHorizon == null || e.getValue().isAfter(tombstoneHorizon)) tombstoneHorizon = e.getValue();
+            if (indexes != null) indexes.removeTombstone(e.getKey());
+            else markStale(e.getKey());
+        }
     }
 
     /* --------- User operations --------- */
-    public boolean usernameExists(String username) {
+    public synchronized boolean usernameExists(String username) {
         return users.containsKey(username.toLowerCase());
     }
 
-    public void addUser(User user) {
+    public synchronized void addUser(User user) {
         users.put(user.getUsername().toLowerCase(), user);
     }
 
-    public User getUser(String username) {
+    public synchronized User getUser(String username) {
         return users.get(username.toLowerCase());
     }
 
+    public synchronized boolean followUser(User user, User target) {
+        boolean added = user.follow(target.getUsername());
+        if (added) {
+            followGraph.follow(user.getUsername(), target.getUsername());
+            changes.publish(ChangeEvent.Type.USER_FOLLOWED, ChangeEvent.NO_RECIPE, user.getUsername(), target.getUsername());
+        }
+        return added;
+    }
+
+    public synchronized int followerCount(String username) {
+        return followGraph.followerCount(username);
+    }
+
+    public synchronized int followingCount(String username) {
+        return followGraph.followingCount(username);
+    }
+
+    public synchronized boolean isMutualFollow(String a, String b) {
+        return followGraph.isMutual(a, b);
+    }
+
+    public synchronized List<String> followers(String username) {
+        return followGraph.followers(username);
+    }
+
+    public synchronized List<String> followers(String username, int limit) {
+        return followGraph.followers(username, limit);
+    }
+
+    /**
+     * Friends-of-friends suggestions: people followed by the people this user follows.
+     */
+    public synchronized List<String> peopleYouMayKnow(String username, int k) {
+        return followGraph.suggest(username, k);
+    }
+
     /* --------- Recipe operations --------- */
-    public Recipe addRecipe(String authorUsername, String title, String description, List<String> ingredients, List<String> steps, List<String> tags) {
+    public synchronized Recipe addRecipe(String authorUsername, String title, String description, List<String> ingredients, List<String> steps, List<String> tags) {
         int id = nextRecipeId++;
         Recipe r = new Recipe(id, title, description, authorUsername, ingredients, steps, tags, LocalDateTime.now());
         recipes.put(id, r);
+        if (indexes != null) indexes.add(r);
+        else markStale(id);
+        changes.publish(ChangeEvent.Type.RECIPE_ADDED, id, authorUsername, null);
         return r;
     }
 
-    public boolean deleteRecipe(int id, String requester) {
+    public synchronized boolean deleteRecipe(int id, String requester) {
         Recipe r = recipes.get(id);
         if (r == null) return false;
         if (!r.getAuthorUsername().equalsIgnoreCase(requester)) return false;
+        LocalDateTime now = LocalDateTime.now();
+        if (indexes != null) {
+            indexes.remove(r);
+            indexes.addTombstone(id, now);
+        } else {
+            markStale(id);
+        }
         recipes.remove(id);
+        tombstones.put(id, now);
+        changes.publish(ChangeEvent.Type.RECIPE_DELETED, id, requester, null);
         return true;
     }
 
-    public boolean editRecipe(int id, String requester, String newTitle, String newDescription, List<String> newIngredients, List<String> newSteps, List<String> newTags) {
+    public synchronized boolean editRecipe(int id, String requester, String newTitle, String newDescription, List<String> newIngredients, List<String> newSteps, List<String> newTags) {
         Recipe r = recipes.get(id);
         if (r == null) return false;
         if (!r.getAuthorUsername().equalsIgnoreCase(requester)) return false;
+        if (indexes != null) indexes.remove(r);
         r.setTitle(newTitle);
         r.setDescription(newDescription);
         r.setIngredients(newIngredients);
         r.setSteps(newSteps);
         r.setTags(newTags);
         r.setLastUpdated(LocalDateTime.now());
+        if (indexes != null) indexes.add(r);
+        else markStale(id);
+        changes.publish(ChangeEvent.Type.RECIPE_EDITED, id, requester, null);
         return true;
     }
 
-    public List<Recipe> listAllRecipes() {
-        return new ArrayList<>(recipes.values()).stream()
-                .sorted(Comparator.comparing(Recipe::getCreatedAt).reversed())
-                .collect(Collectors.toList());
+    public synchronized List<Recipe> listAllRecipes() {
+        if (indexes == null) {
+            return new ArrayList<>(recipes.values()).stream()
+                    .sorted(Comparator.comparing(Recipe::getCreatedAt).reversed())
+                    .collect(Collectors.toList());
+        }
+        return toRecipes(indexes.created.newestFirst(Integer.MAX_VALUE));
     }
 
     public Recipe getRecipeById(int id) {
@@ -118,39 +289,155 @@ public class Platform implements Serializable {
                 .collect(Collectors.toList());
     }
 
-    public List<Recipe> searchByTag(String tag) {
+    public synchronized List<Recipe> searchByTag(String tag) {
         String ql = tag.toLowerCase();
-        return recipes.values().stream()
+        Collection<Recipe> matches = indexes != null ? toRecipes(indexes.withTag(ql)) : recipes.values();
+        return matches.stream()
                 .filter(r -> r.getTags().stream().anyMatch(t -> t.toLowerCase().equals(ql)))
                 .sorted(Comparator.comparing(Recipe::getCreatedAt).reversed())
                 .collect(Collectors.toList());
     }
 
-    public boolean likeRecipe(int id, String username) {
+    /**
+     * Relevance-ranked search across title, description, ingredients, steps and tags.
+     */
+    public synchronized List<Recipe> search(String q, int limit) {
+        List<Integer> ids = indexes != null
+                ? indexes.search.search(q, limit)
+                : RecipeSearchIndex.scan(recipes.values(), q, limit);
+        return toRecipes(ids);
+    }
+
+    /**
+     * Approximate nearest neighbours by ingredient and tag overlap (MinHash/LSH).
+     */
+    public synchronized List<Recipe> similarRecipes(int id, int k) {
+        if (indexes == null) {
+            Recipe target = recipes.get(id);
+            if (target == null) return new ArrayList<>();
+            return toRecipes(SimilarityIndex.scan(target, recipes.values(), k));
+        }
+        return toRecipes(indexes.similarity.similar(id, k));
+    }
+
+    /**
+     * Autocomplete over titles, tags or ingredients, ranked by how many recipes
+     * use a term plus their likes.
+     */
+    public synchronized List<String> suggest(AutocompleteIndex.Field field, String prefix, int k) {
+        k = Math.max(0, Math.min(k, PrefixTrie.MAX_K));
+        return indexes != null
+                ? indexes.autocomplete.suggest(field, prefix, k)
+                : AutocompleteIndex.scan(recipes.values(), field, prefix, k);
+    }
+
+    /* --------- Time range and sync queries --------- */
+
+    /**
+     * Recipes created in {@code [from, to)}, oldest first.
+     */
+    public synchronized List<Recipe> recipesCreatedBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        if (limit <= 0) throw new IllegalArgumentException("limit must be positive");
+        if (indexes != null) return toRecipes(indexes.created.between(from, to, limit));
+        List<TimeIndex.Entry> created = new ArrayList<>(recipes.size());
+        for (Recipe r : recipes.values()) created.add(new TimeIndex.Entry(r.getCreatedAt(), r.getId()));
+        return toRecipes(TimeIndex.scanBetween(created, from, to, limit));
+    }
+
+    public SyncPage recipesChangedSince(LocalDateTime since, String cursor) {
+        return recipesChangedSince(since, cursor, DEFAULT_SYNC_PAGE_SIZE);
+    }
+
+    /**
+     * Recipes added, edited or deleted at or after {@code since}, in change order.
+     * Start with a null cursor and keep passing back {@link SyncPage#getNextCursor()}
+     * until {@link SyncPage#hasMore()} is false.
+     *
+     * Deletions are only remembered for {@link #TOMBSTONE_RETENTION}. Resuming
+     * from before a forgotten deletion fails with {@link IllegalStateException};
+     * the client then has to resync from a full listing.
+     */
+    public synchronized SyncPage recipesChangedSince(LocalDateTime since, String cursor, int limit) {
+        if (limit <= 0) throw new IllegalArgumentException("limit must be positive");
+        LocalDateTime from = since;
+        if (cursor != null) {
+            LocalDateTime at = TimeIndex.parseCursor(cursor).time;
+            if (at.isAfter(from)) from = at;
+        }
+        if (tombstoneHorizon != null && !from.isAfter(tombstoneHorizon)) {
+            throw new IllegalStateException("Deletions up to " + tombstoneHorizon + " are no longer retained");
+        }
+        List<TimeIndex.Entry> entries = indexes != null
+                ? indexes.changed.since(since, cursor, limit + 1)
+                : TimeIndex.scanSince(changeEntries(), since, cursor, limit + 1);
+        boolean hasMore = entries.size() > limit;
+        if (hasMore) entries = entries.subList(0, limit);
+        List<Recipe> changed = new ArrayList<>();
+        List<Integer> deleted = new ArrayList<>();
+        for (TimeIndex.Entry e : entries) {
+            Recipe r = recipes.get(e.id);
+            if (r != null) changed.add(r);
+            else deleted.add(e.id);
+        }
+        String next = entries.isEmpty() ? cursor : TimeIndex.cursorOf(entries.get(entries.size() - 1));
+        return new SyncPage(changed, deleted, next, hasMore);
+    }
+
+    // what the changed index would hold, for scanning while it is being rebuilt
+    private List<TimeIndex.Entry> changeEntries() {
+        List<TimeIndex.Entry> out = new ArrayList<>(recipes.size() + tombstones.size());
+        for (Recipe r : recipes.values()) out.add(new TimeIndex.Entry(RecipeIndexes.changeTime(r), r.getId()));
+        for (Map.Entry<Integer, LocalDateTime> e : tombstones.entrySet()) out.add(new TimeIndex.Entry(e.getValue(), e.getKey()));
+        return out;
+    }
+
+    private List<Recipe> toRecipes(Collection<Integer> ids) {
+        List<Recipe> out = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            Recipe r = recipes.get(id);
+            if (r != null) out.add(r);
+        }
+        return out;
+    }
+
+    public synchronized boolean likeRecipe(int id, String username) {
         Recipe r = recipes.get(id);
         if (r == null) return false;
-        return r.toggleLike(username);
+        boolean nowLiked = r.toggleLike(username);
+        if (indexes != null) indexes.likeToggled(r, nowLiked);
+        else markStale(id);
+        changes.publish(ChangeEvent.Type.LIKE_TOGGLED, id, username, nowLiked ? "liked" : "unliked");
+        return nowLiked;
     }
 
-    public boolean commentRecipe(int id, String username, String text) {
+    public synchronized boolean commentRecipe(int id, String username, String text) {
         Recipe r = recipes.get(id);
         if (r == null) return false;
         Comment c = new Comment(username, text, LocalDateTime.now());
         r.getComments().add(c);
+        changes.publish(ChangeEvent.Type.COMMENT_ADDED, id, username, text);
         return true;
     }
 
-    public void userMenu(java.util.Scanner sc, User user) {
-        while (true) {
+    /**
+     * Console menu for the session behind {@code token}. The user is looked up
+     * from the token on every action, so an expired session ends the menu.
+     */
+    public void userMenu(java.util.Scanner sc, String token) {
+        User user = sessionUser(token);
+        while (user != null) {
             System.out.println("\nUser Menu - Logged in as: " + user.getUsername());
             System.out.println("1. Add recipe");
             System.out.println("2. My recipes");
             System.out.println("3. Browse all recipes");
             System.out.println("4. Search recipes");
             System.out.println("5. Follow user");
-            System.out.println("6. Logout");
+            System.out.println("6. Followers & people you may know");
+            System.out.println("7. Logout");
             System.out.print("Choose: ");
             String opt = sc.nextLine().trim();
+            user = sessionUser(token); // may have expired while idle at the prompt
+            if (user == null) return;
             switch (opt) {
                 case "1":
                     addRecipeInteractive(sc, user);
@@ -168,6 +455,10 @@ public class Platform implements Serializable {
                     followUserInteractive(sc, user);
                     break;
                 case "6":
+                    followersInteractive(sc, user);
+                    break;
+                case "7":
+                    authService.logout(token);
                     saveData();
                     System.out.println("Logged out.");
                     return;
@@ -177,6 +468,12 @@ public class Platform implements Serializable {
         }
     }
 
+    private User sessionUser(String token) {
+        User u = authService.authenticate(token);
+        if (u == null) System.out.println("Session expired. Please login again.");
+        return u;
+    }
+
     private void addRecipeInteractive(Scanner sc, User user) {
         System.out.print("Title: ");
         String title = sc.nextLine().trim();
@@ -239,6 +536,11 @@ public class Platform implements Serializable {
             return;
         }
         printRecipeDetail(r);
+        List<Recipe> similar = similarRecipes(id, 5);
+        if (!similar.isEmpty()) {
+            System.out.println("Similar recipes:");
+            for (Recipe s : similar) System.out.printf(" [%d] %s (by %s)\n", s.getId(), s.getTitle(), s.getAuthorUsername());
+        }
 
         System.out.println("\nOptions:");
         System.out.println("1. Like/Unlike");
@@ -368,27 +670,60 @@ public class Platform implements Serializable {
             System.out.println("User not found.");
             return;
         }
-        boolean added = user.follow(target.getUsername());
+        boolean added = followUser(user, target);
         System.out.println(added ? "Now following " + target.getUsername() : "You already follow " + target.getUsername());
     }
 
+    private void followersInteractive(Scanner sc, User user) {
+        String me = user.getUsername();
+        int fanCount = followerCount(me);
+        System.out.println("Followers: " + fanCount + "  Following: " + followingCount(me));
+        for (String f : followers(me, 20)) {
+            System.out.println(" - " + f + (isMutualFollow(me, f) ? " (follows each other)" : ""));
+        }
+        if (fanCount > 20) System.out.println(" ... and " + (fanCount - 20) + " more");
+        List<String> suggestions = peopleYouMayKnow(me, 5);
+        if (suggestions.isEmpty()) return;
+        System.out.println("People you may know:");
+        for (int i = 0; i < suggestions.size(); i++) System.out.println(" " + (i + 1) + ") " + suggestions.get(i));
+        System.out.print("Enter a number to follow, or blank to return: ");
+        String pick = sc.nextLine().trim();
+        if (pick.isEmpty()) return;
+        try {
+            int idx = Integer.parseInt(pick);
+            User target = idx >= 1 && idx <= suggestions.size() ? getUser(suggestions.get(idx - 1)) : null;
+            if (target == null) {
+                System.out.println("Invalid choice.");
+                return;
+            }
+            followUser(user, target);
+            System.out.println("Now following " + target.getUsername());
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid choice.");
+        }
+    }
+
     public void searchInteractive(Scanner sc, User user) {
-        System.out.println("\nSearch by: 1) Title 2) Ingredient 3) Tag");
+        System.out.println("\nSearch by: 1) Title 2) Ingredient 3) Tag 4) Keywords (best match)");
         System.out.print("Choose: ");
         String c = sc.nextLine().trim();
         List<Recipe> res = new ArrayList<>();
         switch (c) {
             case "1":
-                System.out.print("Query title: ");
-                res = searchByTitle(sc.nextLine().trim());
+                System.out.print("Query title (end with * for suggestions): ");
+                res = searchByTitle(completeInteractive(sc, AutocompleteIndex.Field.TITLE));
                 break;
             case "2":
-                System.out.print("Ingredient: ");
-                res = searchByIngredient(sc.nextLine().trim());
+                System.out.print("Ingredient (end with * for suggestions): ");
+                res = searchByIngredient(completeInteractive(sc, AutocompleteIndex.Field.INGREDIENT));
                 break;
             case "3":
-                System.out.print("Tag: ");
-                res = searchByTag(sc.nextLine().trim());
+                System.out.print("Tag (end with * for suggestions): ");
+                res = searchByTag(completeInteractive(sc, AutocompleteIndex.Field.TAG));
+                break;
+            case "4":
+                System.out.print("Keywords: ");
+                res = search(sc.nextLine().trim(), DEFAULT_SEARCH_LIMIT);
                 break;
             default:
                 System.out.println("Invalid.");
@@ -410,11 +745,36 @@ public class Platform implements Serializable {
         }
     }
 
+    // reads a search term; "prefix*" lists suggestions and lets the user pick one
+    private String completeInteractive(Scanner sc, AutocompleteIndex.Field field) {
+        String q = sc.nextLine().trim();
+        if (!q.endsWith("*")) return q;
+        String prefix = q.substring(0, q.length() - 1);
+        List<String> options = suggest(field, prefix, 5);
+        if (options.isEmpty()) {
+            System.out.println("No suggestions.");
+            return prefix;
+        }
+        for (int i = 0; i < options.size(); i++) System.out.println(" " + (i + 1) + ") " + options.get(i));
+        System.out.print("Pick a number, or blank to search for \"" + prefix + "\": ");
+        String pick = sc.nextLine().trim();
+        try {
+            int idx = Integer.parseInt(pick);
+            if (idx >= 1 && idx <= options.size()) return options.get(idx - 1);
+        } catch (NumberFormatException e) {
+            // fall through to the raw prefix
+        }
+        return prefix;
+    }
+
     /* ---- Internal persistence container ---- */
     public static class PlatformData implements Serializable {
         private static final long serialVersionUID = 1L;
         Map<String, User> users;
         Map<Integer, Recipe> recipes;
         int nextRecipeId;
+        long lastChangeSeq;
+        Map<Integer, LocalDateTime> tombstones;
+        LocalDateTime tombstoneHorizon;
     }
 }
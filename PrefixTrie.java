@@ -0,0 +1,175 @@
+package platform;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Weighted prefix trie for autocomplete. Every node caches the best
+ * {@link #MAX_K} terms of its subtree, so a lookup only walks the prefix and
+ * copies that list. Weights are kept current incrementally through
+ * {@link #adjust}, which refreshes the cached lists along one path.
+ */
+public class PrefixTrie {
+    public static final int MAX_K = 10;
+
+    private final Node root = new Node();
+    private int size;
+
+    /**
+     * Changes the recipe count and like total behind {@code term}. A term whose
+     * recipe count drops to zero is removed.
+     */
+    public void adjust(String term, int countDelta, long likesDelta) {
+        if (term == null || term.isEmpty()) return;
+        Node[] path = new Node[term.length() + 1];
+        Node n = root;
+        path[0] = n;
+        for (int i = 0; i < term.length(); i++) {
+            n = n.child(term.charAt(i), true);
+            path[i + 1] = n;
+        }
+        boolean existed = n.term != null;
+        n.term = term;
+        n.count += countDelta;
+        n.likes += likesDelta;
+        if (n.count <= 0) {
+            n.term = null;
+            n.count = 0;
+            n.likes = 0;
+        }
+        if (existed && n.term == null) size--;
+        if (!existed && n.term != null) size++;
+
+        for (int i = term.length(); i >= 0; i--) {
+            Node node = path[i];
+            if (i > 0 && node.isEmpty()) path[i - 1].removeChild(term.charAt(i - 1));
+            else node.refreshTop();
+        }
+    }
+
+    /**
+     * Bulk-load variant of {@link #adjust} that leaves the cached lists stale;
+     * call {@link #refreshAll()} once all terms are in.
+     */
+    void put(String term, int count, long likes) {
+        Node n = root;
+        for (int i = 0; i < term.length(); i++) n = n.child(term.charAt(i), true);
+        if (n.term == null) size++;
+        n.term = term;
+        n.count = count;
+        n.likes = likes;
+    }
+
+    /** Recomputes every cached list bottom-up. */
+    void refreshAll() {
+        Deque<Node> stack = new ArrayDeque<>();
+        List<Node> order = new ArrayList<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node n = stack.pop();
+            order.add(n);
+            for (int i = 0; i < n.childCount; i++) stack.push(n.children[i]);
+        }
+        for (int i = order.size() - 1; i >= 0; i--) order.get(i).refreshTop();
+    }
+
+    /** Up to {@code k} terms starting with {@code prefix}, best first. */
+    public List<String> suggest(String prefix, int k) {
+        Node n = root;
+        for (int i = 0; i < prefix.length() && n != null; i++) n = n.child(prefix.charAt(i), false);
+        List<String> out = new ArrayList<>();
+        if (n == null) return out;
+        for (int i = 0; i < n.top.length && out.size() < k; i++) out.add(n.top[i].term);
+        return out;
+    }
+
+    public long weight(String term) {
+        Node n = root;
+        for (int i = 0; i < term.length() && n != null; i++) n = n.child(term.charAt(i), false);
+        return n == null || n.term == null ? 0 : n.weight();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Every term with its recipe count and like total, for persistence. */
+    void forEach(TermVisitor visitor) throws IOException {
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node n = stack.pop();
+            if (n.term != null) visitor.visit(n.term, n.count, n.likes);
+            for (int i = 0; i < n.childCount; i++) stack.push(n.children[i]);
+        }
+    }
+
+    interface TermVisitor {
+        void visit(String term, int count, long likes) throws IOException;
+    }
+
+    /* ---- Trie node: children in a sorted array, plus the cached top list ---- */
+    private static class Node {
+        private static final Node[] NO_NODES = new Node[0];
+
+        char[] keys = new char[0];
+        Node[] children = NO_NODES;
+        int childCount;
+        String term; // non-null if a term ends here
+        int count;   // recipes using the term
+        long likes;  // likes across those recipes
+        Node[] top = NO_NODES; // terminal nodes of the best terms in this subtree
+
+        long weight() {
+            return count + likes;
+        }
+
+        boolean isEmpty() {
+            return term == null && childCount == 0;
+        }
+
+        Node child(char c, boolean create) {
+            int i = Arrays.binarySearch(keys, 0, childCount, c);
+            if (i >= 0) return children[i];
+            if (!create) return null;
+            i = -i - 1;
+            if (childCount == keys.length) {
+                int cap = Math.max(2, childCount * 2);
+                keys = Arrays.copyOf(keys, cap);
+                children = Arrays.copyOf(children, cap);
+            }
+            System.arraycopy(keys, i, keys, i + 1, childCount - i);
+            System.arraycopy(children, i, children, i + 1, childCount - i);
+            Node n = new Node();
+            keys[i] = c;
+            children[i] = n;
+            childCount++;
+            return n;
+        }
+
+        void removeChild(char c) {
+            int i = Arrays.binarySearch(keys, 0, childCount, c);
+            if (i < 0) return;
+            System.arraycopy(keys, i + 1, keys, i, childCount - i - 1);
+            System.arraycopy(children, i + 1, children, i, childCount - i - 1);
+            children[--childCount] = null;
+        }
+
+        // merges this node's own term with the children's cached lists
+        void refreshTop() {
+            if (term == null && childCount == 1) {
+                top = children[0].top; // chains share their child's list
+                return;
+            }
+            List<Node> candidates = new ArrayList<>();
+            if (term != null) candidates.add(this);
+            for (int i = 0; i < childCount; i++) Collections.addAll(candidates, children[i].top);
+            candidates.sort(BEST_FIRST);
+            top = candidates.subList(0, Math.min(MAX_K, candidates.size())).toArray(NO_NODES);
+        }
+    }
+
+    private static final Comparator<Node> BEST_FIRST = Comparator
+            .comparingLong(Node::weight).reversed()
+            .thenComparing(n -> n.term);
+}
@@ -0,0 +1,122 @@
+package platform;
+
+import platform.models.Recipe;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * The set of secondary indexes Platform keeps over its recipes. They are
+ * built, persisted and swapped in together so they never disagree.
+ */
+class RecipeIndexes {
+    final RecipeSearchIndex search;
+    final SimilarityIndex similarity;
+    final TimeIndex created;
+    final TimeIndex changed; // last add/edit time of live recipes, delete time of tombstones
+    final AutocompleteIndex autocomplete;
+    private final Map<String, Set<Integer>> tags = new HashMap<>(); // lowercase tag -> recipeIds
+
+    RecipeIndexes() {
+        this(new RecipeSearchIndex(), new SimilarityIndex(), new TimeIndex(), new TimeIndex(), new AutocompleteIndex());
+    }
+
+    private RecipeIndexes(RecipeSearchIndex search, SimilarityIndex similarity, TimeIndex created, TimeIndex changed,
+                          AutocompleteIndex autocomplete) {
+        this.search = search;
+        this.similarity = similarity;
+        this.created = created;
+        this.changed = changed;
+        this.autocomplete = autocomplete;
+    }
+
+    static RecipeIndexes build(Collection<Recipe> recipes, Map<Integer, LocalDateTime> tombstones) {
+        RecipeIndexes idx = new RecipeIndexes();
+        for (Recipe r : recipes) idx.add(r);
+        for (Map.Entry<Integer, LocalDateTime> e : tombstones.entrySet()) idx.changed.put(e.getKey(), e.getValue());
+        idx.similarity.compact();
+        return idx;
+    }
+
+    /* --------- Maintenance --------- */
+    void add(Recipe r) {
+        search.add(r);
+        similarity.add(r);
+        created.put(r.getId(), r.getCreatedAt());
+        changed.put(r.getId(), changeTime(r));
+        autocomplete.add(r);
+        for (String t : r.getTags()) tags.computeIfAbsent(t.toLowerCase(), k -> new HashSet<>()).add(r.getId());
+    }
+
+    /**
+     * Must be called before the recipe's fields change, since the text
+     * indexes are cleaned up by re-reading its current content.
+     */
+    void remove(Recipe r) {
+        search.remove(r);
+        similarity.remove(r.getId());
+        created.remove(r.getId());
+        changed.remove(r.getId());
+        autocomplete.remove(r);
+        for (String t : r.getTags()) {
+            String tl = t.toLowerCase();
+            Set<Integer> ids = tags.get(tl);
+            if (ids == null) continue;
+            ids.remove(r.getId());
+            if (ids.isEmpty()) tags.remove(tl);
+        }
+    }
+
+    static LocalDateTime changeTime(Recipe r) {
+        return r.getLastUpdated() != null ? r.getLastUpdated() : r.getCreatedAt();
+    }
+
+    void likeToggled(Recipe r, boolean liked) {
+        autocomplete.likeToggled(r, liked);
+    }
+
+    void addTombstone(int id, LocalDateTime deletedAt) {
+        changed.put(id, deletedAt);
+    }
+
+    void removeTombstone(int id) {
+        changed.remove(id);
+    }
+
+    /* --------- Tags --------- */
+    Set<Integer> withTag(String tag) {
+        return tags.getOrDefault(tag.toLowerCase(), Collections.emptySet());
+    }
+
+    /* --------- Persistence --------- */
+    void writeTo(DataOutputStream out) throws IOException {
+        search.writeTo(out);
+        similarity.writeTo(out);
+        created.writeTo(out);
+        changed.writeTo(out);
+        autocomplete.writeTo(out);
+        out.writeInt(tags.size());
+        for (Map.Entry<String, Set<Integer>> e : tags.entrySet()) {
+            IndexStore.writeString(out, e.getKey());
+            out.writeInt(e.getValue().size());
+            for (int id : e.getValue()) out.writeInt(id);
+        }
+    }
+
+    static RecipeIndexes readFrom(ByteBuffer buf) {
+        RecipeIndexes idx = new RecipeIndexes(RecipeSearchIndex.readFrom(buf), SimilarityIndex.readFrom(buf), TimeIndex.readFrom(buf), TimeIndex.readFrom(buf),
+                AutocompleteIndex.readFrom(buf));
+        int n = buf.getInt();
+        for (int i = 0; i < n; i++) {
+            String tag = IndexStore.readString(buf);
+            int count = buf.getInt();
+            Set<Integer> ids = new HashSet<>(count * 2);
+            for (int j = 0; j < count; j++) ids.add(buf.getInt());
+            idx.tags.put(tag, ids);
+        }
+        return idx;
+    }
+}
@@ -0,0 +1,287 @@
+package platform;
+
+import platform.models.Recipe;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * In-memory inverted index over recipe text, scored with BM25 per field.
+ * Each field keeps its own postings and length statistics; the per-field
+ * scores are combined using the boosts in {@link Field}.
+ */
+public class RecipeSearchIndex {
+
+    public enum Field {
+        TITLE(3.0),
+        TAGS(2.0),
+        INGREDIENTS(1.5),
+        DESCRIPTION(1.0),
+        STEPS(0.5);
+
+        private final double boost;
+
+        Field(double boost) {
+            this.boost = boost;
+        }
+
+        public double getBoost() {
+            return boost;
+        }
+    }
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final Map<Field, FieldIndex> fields = new EnumMap<>(Field.class);
+    private final Set<Integer> docs = new HashSet<>();
+
+    public RecipeSearchIndex() {
+        for (Field f : Field.values()) fields.put(f, new FieldIndex());
+    }
+
+    /* --------- Maintenance --------- */
+
+    /**
+     * Indexes a recipe that is not yet in the index. To re-index an edited
+     * recipe, {@link #remove(Recipe)} it before changing its fields.
+     */
+    public void add(Recipe r) {
+        if (!docs.add(r.getId())) throw new IllegalStateException("Recipe " + r.getId() + " is already indexed");
+        for (Field f : Field.values()) fields.get(f).add(r.getId(), tokens(r, f));
+    }
+
+    /**
+     * Removes a recipe using the same content it was indexed with.
+     */
+    public void remove(Recipe r) {
+        if (!docs.remove(r.getId())) return;
+        for (Field f : Field.values()) fields.get(f).remove(r.getId(), tokens(r, f));
+    }
+
+    public int size() {
+        return docs.size();
+    }
+
+    private static List<String> tokens(Recipe r, Field f) {
+        switch (f) {
+            case TITLE: return tokenize(r.getTitle());
+            case TAGS: return tokenize(r.getTags());
+            case INGREDIENTS: return tokenize(r.getIngredients());
+            case DESCRIPTION: return tokenize(r.getDescription());
+            default: return tokenize(r.getSteps());
+        }
+    }
+
+    /* --------- Query --------- */
+
+    /**
+     * Returns up to {@code limit} recipe ids ordered by descending score.
+     * Only the best {@code limit} candidates are ever held in the heap, so the
+     * cost of ranking grows with the number of matches times log(limit).
+     */
+    public List<Integer> search(String query, int limit) {
+        if (limit <= 0 || docs.isEmpty()) return new ArrayList<>();
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        if (terms.isEmpty()) return new ArrayList<>();
+
+        int n = docs.size();
+        Map<Integer, Double> scores = new HashMap<>();
+        for (Map.Entry<Field, FieldIndex> e : fields.entrySet()) {
+            double boost = e.getKey().getBoost();
+            FieldIndex fi = e.getValue();
+            double avgLen = (double) fi.totalLength / n;
+            for (String term : terms) {
+                Map<Integer, Integer> postings = fi.postings(term);
+                if (postings == null) continue;
+                double idf = Math.log(1.0 + (n - postings.size() + 0.5) / (postings.size() + 0.5));
+                for (Map.Entry<Integer, Integer> p : postings.entrySet()) {
+                    int tf = p.getValue();
+                    int len = fi.length(p.getKey());
+                    double norm = tf + K1 * (1 - B + B * (avgLen == 0 ? 0 : len / avgLen));
+                    scores.merge(p.getKey(), boost * idf * tf * (K1 + 1) / norm, Double::sum);
+                }
+            }
+        }
+        return topK(scores, limit);
+    }
+
+    /**
+     * Index-free fallback used while the index is being rebuilt: scores each
+     * recipe by the boosted number of query terms its fields contain.
+     */
+    public static List<Integer> scan(Collection<Recipe> recipes, String query, int limit) {
+        if (limit <= 0) return new ArrayList<>();
+        Set<String> terms = new HashSet<>(tokenize(query));
+        if (terms.isEmpty()) return new ArrayList<>();
+        Map<Integer, Double> scores = new HashMap<>();
+        for (Recipe r : recipes) {
+            double score = 0;
+            for (Field f : Field.values()) score += hits(terms, tokens(r, f), f);
+            if (score > 0) scores.put(r.getId(), score);
+        }
+        return topK(scores, limit);
+    }
+
+    private static double hits(Set<String> terms, List<String> tokens, Field field) {
+        Set<String> present = new HashSet<>(tokens);
+        present.retainAll(terms);
+        return present.size() * field.getBoost();
+    }
+
+    private static List<Integer> topK(Map<Integer, Double> scores, int k) {
+        // min-heap on score; ties favour the newer (higher) id
+        Comparator<Map.Entry<Integer, Double>> worstFirst = Comparator
+                .comparing((Map.Entry<Integer, Double> e) -> e.getValue())
+                .thenComparing(Map.Entry::getKey);
+        PriorityQueue<Map.Entry<Integer, Double>> heap = new PriorityQueue<>(Math.min(k, scores.size()) + 1, worstFirst);
+        for (Map.Entry<Integer, Double> e : scores.entrySet()) {
+            if (heap.size() < k) {
+                heap.add(e);
+            } else if (worstFirst.compare(e, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(e);
+            }
+        }
+        List<Integer> out = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) out.add(heap.poll().getKey());
+        Collections.reverse(out);
+        return out;
+    }
+
+    /* --------- Tokenizing --------- */
+    public static List<String> tokenize(String text) {
+        List<String> out = new ArrayList<>();
+        if (text == null) return out;
+        for (String tok : text.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+            if (!tok.isEmpty()) out.add(tok);
+        }
+        return out;
+    }
+
+    public static List<String> tokenize(List<String> lines) {
+        List<String> out = new ArrayList<>();
+        if (lines == null) return out;
+        for (String line : lines) out.addAll(tokenize(line));
+        return out;
+    }
+
+    /* --------- Persistence --------- */
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(docs.size());
+        for (int id : docs) out.writeInt(id);
+        for (Field f : Field.values()) fields.get(f).writeTo(out);
+    }
+
+    /**
+     * Reads the index back without decoding posting lists: each term's postings
+     * stay in {@code buf} and are decoded the first time the term is used.
+     */
+    static RecipeSearchIndex readFrom(ByteBuffer buf) {
+        RecipeSearchIndex idx = new RecipeSearchIndex();
+        int n = buf.getInt();
+        for (int i = 0; i < n; i++) idx.docs.add(buf.getInt());
+        for (Field f : Field.values()) idx.fields.get(f).readFrom(buf);
+        return idx;
+    }
+
+    /* ---- Per-field postings and length statistics ---- */
+    private static class FieldIndex {
+        final Map<String, Map<Integer, Integer>> postings = new HashMap<>(); // term -> (recipeId -> tf)
+        final Map<String, Integer> encoded = new HashMap<>(); // term -> offset of its postings in source
+        ByteBuffer source;
+        int[] lengths = new int[16]; // recipeId -> token count
+        long totalLength;
+
+        Map<Integer, Integer> postings(String term) {
+            Map<Integer, Integer> p = postings.get(term);
+            if (p == null && !encoded.isEmpty()) {
+                Integer off = encoded.remove(term);
+                if (off != null) {
+                    p = decode(off);
+                    postings.put(term, p);
+                }
+            }
+            return p;
+        }
+
+        int length(int id) {
+            return id < lengths.length ? lengths[id] : 0;
+        }
+
+        void add(int id, List<String> tokens) {
+            Map<String, Integer> tf = new HashMap<>();
+            for (String t : tokens) tf.merge(t, 1, Integer::sum);
+            for (Map.Entry<String, Integer> e : tf.entrySet()) {
+                Map<Integer, Integer> p = postings(e.getKey());
+                if (p == null) {
+                    p = new HashMap<>();
+                    postings.put(e.getKey(), p);
+                }
+                p.put(id, e.getValue());
+            }
+            if (id >= lengths.length) lengths = Arrays.copyOf(lengths, Math.max(id + 1, lengths.length * 2));
+            lengths[id] = tokens.size();
+            totalLength += tokens.size();
+        }
+
+        void remove(int id, List<String> tokens) {
+            for (String t : new HashSet<>(tokens)) {
+                Map<Integer, Integer> p = postings(t);
+                if (p == null) continue;
+                p.remove(id);
+                if (p.isEmpty()) postings.remove(t);
+            }
+            totalLength -= length(id);
+            if (id < lengths.length) lengths[id] = 0;
+        }
+
+        private Map<Integer, Integer> decode(int off) {
+            int n = source.getInt(off);
+            Map<Integer, Integer> p = new HashMap<>(n * 2);
+            for (int j = 0; j < n; j++) {
+                p.put(source.getInt(off + 4 + 8 * j), source.getInt(off + 8 + 8 * j));
+            }
+            return p;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(lengths.length);
+            for (int len : lengths) out.writeInt(len);
+            out.writeInt(postings.size() + encoded.size());
+            for (Map.Entry<String, Map<Integer, Integer>> e : postings.entrySet()) {
+                IndexStore.writeString(out, e.getKey());
+                out.writeInt(e.getValue().size());
+                for (Map.Entry<Integer, Integer> p : e.getValue().entrySet()) {
+                    out.writeInt(p.getKey());
+                    out.writeInt(p.getValue());
+                }
+            }
+            // postings never touched since load are copied over as-is
+            for (Map.Entry<String, Integer> e : encoded.entrySet()) {
+                IndexStore.writeString(out, e.getKey());
+                int off = e.getValue();
+                byte[] raw = new byte[4 + 8 * source.getInt(off)];
+                source.get(off, raw);
+                out.write(raw);
+            }
+        }
+
+        void readFrom(ByteBuffer buf) {
+            lengths = new int[buf.getInt()];
+            buf.asIntBuffer().get(lengths);
+            buf.position(buf.position() + 4 * lengths.length);
+            for (int len : lengths) totalLength += len;
+            int terms = buf.getInt();
+            for (int i = 0; i < terms; i++) {
+                String term = IndexStore.readString(buf);
+                int off = buf.position();
+                encoded.put(term, off);
+                buf.position(off + 4 + 8 * buf.getInt(off));
+            }
+            source = buf;
+        }
+    }
+}
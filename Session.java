@@ -0,0 +1,31 @@
+package platform;
+
+/**
+ * A logged-in user's session, identified by an opaque random token.
+ */
+public final class Session {
+    private final String token;
+    private final String username;
+    private final long createdAt;
+    private volatile long expiresAt;
+
+    Session(String token, String username, long createdAt, long expiresAt) {
+        this.token = token;
+        this.username = username;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getToken() { return token; }
+    public String getUsername() { return username; }
+    public long getCreatedAt() { return createdAt; }
+    public long getExpiresAt() { return expiresAt; }
+
+    void extendTo(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+}
@@ -0,0 +1,96 @@
+package platform;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent store of {@link Session}s with a sliding idle timeout.
+ * Validating a token is a single hash lookup; expired sessions are dropped
+ * when they are next looked up and by a periodic sweep.
+ */
+public class SessionStore {
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    private static final int TOKEN_BYTES = 32;
+    private static final int SWEEP_EVERY = 256; // new sessions between sweeps
+
+    private final long idleTimeoutMillis;
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, Session> byToken = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> tokensByUser = new ConcurrentHashMap<>(); // lowercase username -> tokens
+    private int createdSinceSweep;
+
+    public SessionStore() {
+        this(DEFAULT_IDLE_TIMEOUT_MILLIS);
+    }
+
+    public SessionStore(long idleTimeoutMillis) {
+        if (idleTimeoutMillis <= 0) throw new IllegalArgumentException("idle timeout must be positive");
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    public Session create(String username) {
+        byte[] raw = new byte[TOKEN_BYTES];
+        random.nextBytes(raw);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+        long now = System.currentTimeMillis();
+        Session s = new Session(token, username, now, now + idleTimeoutMillis);
+        byToken.put(token, s);
+        tokensByUser.computeIfAbsent(username.toLowerCase(), k -> ConcurrentHashMap.newKeySet()).add(token);
+        maybeSweep();
+        return s;
+    }
+
+    /**
+     * Returns the live session for {@code token}, extending its idle timeout,
+     * or null if the token is unknown or expired.
+     */
+    public Session validate(String token) {
+        if (token == null) return null;
+        Session s = byToken.get(token);
+        if (s == null) return null;
+        long now = System.currentTimeMillis();
+        if (s.isExpired(now)) {
+            invalidate(token);
+            return null;
+        }
+        s.extendTo(now + idleTimeoutMillis);
+        return s;
+    }
+
+    public void invalidate(String token) {
+        Session s = byToken.remove(token);
+        if (s == null) return;
+        Set<String> tokens = tokensByUser.get(s.getUsername().toLowerCase());
+        if (tokens != null) tokens.remove(token);
+    }
+
+    public void invalidateUser(String username) {
+        Set<String> tokens = tokensByUser.remove(username.toLowerCase());
+        if (tokens == null) return;
+        for (String t : tokens) byToken.remove(t);
+    }
+
+    public int size() {
+        return byToken.size();
+    }
+
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        for (Session s : byToken.values()) {
+            if (s.isExpired(now)) invalidate(s.getToken());
+        }
+    }
+
+    private void maybeSweep() {
+        boolean due;
+        synchronized (this) {
+            due = ++createdSinceSweep >= SWEEP_EVERY;
+            if (due) createdSinceSweep = 0;
+        }
+        if (due) sweep();
+    }
+}
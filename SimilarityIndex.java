@@ -0,0 +1,253 @@
+package platform;
+
+import platform.models.Recipe;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.*;
+
+/**
+ * MinHash signatures over each recipe's normalized ingredients and tags,
+ * bucketed with locality-sensitive hashing so similar recipes can be found
+ * without comparing against the whole catalog.
+ */
+public class SimilarityIndex {
+    public static final int NUM_HASHES = 64;
+    public static final int BANDS = 16;
+    private static final int ROWS = NUM_HASHES / BANDS;
+    private static final long PRIME = 2147483647L; // 2^31 - 1
+    private static final long SEED = 0x5EEDL;
+    private static final Set<String> UNITS = new HashSet<>(Arrays.asList(
+            "cup", "cups", "tbsp", "tsp", "tablespoon", "tablespoons", "teaspoon", "teaspoons",
+            "g", "gm", "gms", "gram", "grams", "kg", "ml", "l", "litre", "liter", "pinch", "piece", "pieces"));
+
+    private final long[] hashA = new long[NUM_HASHES];
+    private final long[] hashB = new long[NUM_HASHES];
+
+    private final Map<Integer, int[]> signatures = new HashMap<>(); // recipeId -> signature
+
+    // LSH buckets: per band, a sorted array of (bucket << 32 | recipeId). Recipes
+    // added, edited or removed since the arrays were built are listed in dirty;
+    // their packed entries are ignored and their current buckets are kept in
+    // dirtyBuckets (per band, bucket -> recipeIds) until the next compact.
+    private long[][] packed = new long[BANDS][0];
+    private final Set<Integer> dirty = new HashSet<>();
+    private final List<Map<Integer, Set<Integer>>> dirtyBuckets = new ArrayList<>(BANDS);
+
+    public SimilarityIndex() {
+        Random rnd = new Random(SEED);
+        for (int i = 0; i < NUM_HASHES; i++) {
+            hashA[i] = 1 + (rnd.nextLong() & Long.MAX_VALUE) % (PRIME - 1);
+            hashB[i] = (rnd.nextLong() & Long.MAX_VALUE) % PRIME;
+        }
+        for (int b = 0; b < BANDS; b++) dirtyBuckets.add(new HashMap<>());
+    }
+
+    /* --------- Maintenance --------- */
+    public void add(Recipe r) {
+        Set<String> features = features(r);
+        if (features.isEmpty()) {
+            remove(r.getId());
+            return;
+        }
+        put(r.getId(), signature(features));
+    }
+
+    private void put(int id, int[] sig) {
+        unbucket(id, signatures.put(id, sig));
+        for (int b = 0; b < BANDS; b++) {
+            dirtyBuckets.get(b).computeIfAbsent(bandHash(sig, b), h -> new HashSet<>()).add(id);
+        }
+        dirty.add(id);
+    }
+
+    public void remove(int id) {
+        int[] old = signatures.remove(id);
+        if (old == null) return;
+        unbucket(id, old);
+        dirty.add(id);
+    }
+
+    // drops a dirty recipe's previous signature from dirtyBuckets
+    private void unbucket(int id, int[] oldSig) {
+        if (oldSig == null || !dirty.contains(id)) return;
+        for (int b = 0; b < BANDS; b++) {
+            Map<Integer, Set<Integer>> band = dirtyBuckets.get(b);
+            int hash = bandHash(oldSig, b);
+            Set<Integer> ids = band.get(hash);
+            if (ids == null) continue;
+            ids.remove(id);
+            if (ids.isEmpty()) band.remove(hash);
+        }
+    }
+
+    /**
+     * Rebuilds the packed bucket arrays from the current signatures.
+     */
+    public void compact() {
+        long[][] next = new long[BANDS][signatures.size()];
+        int i = 0;
+        for (Map.Entry<Integer, int[]> e : signatures.entrySet()) {
+            for (int b = 0; b < BANDS; b++) next[b][i] = pack(bandHash(e.getValue(), b), e.getKey());
+            i++;
+        }
+        for (long[] band : next) Arrays.sort(band);
+        packed = next;
+        dirty.clear();
+        for (Map<Integer, Set<Integer>> band : dirtyBuckets) band.clear();
+    }
+
+    /* --------- Query --------- */
+
+    /**
+     * Returns up to {@code k} recipe ids that share at least one LSH bucket
+     * with {@code id}, ordered by estimated Jaccard similarity.
+     */
+    public List<Integer> similar(int id, int k) {
+        int[] sig = signatures.get(id);
+        if (sig == null || k <= 0) return new ArrayList<>();
+        if (dirty.size() > Math.max(256, signatures.size() / 8)) compact();
+
+        Set<Integer> candidates = new HashSet<>();
+        for (int b = 0; b < BANDS; b++) {
+            int hash = bandHash(sig, b);
+            long[] band = packed[b];
+            for (int i = lowerBound(band, pack(hash, 0)); i < band.length && (int) (band[i] >> 32) == hash; i++) {
+                int other = (int) band[i];
+                if (!dirty.contains(other)) candidates.add(other);
+            }
+            Set<Integer> fresh = dirtyBuckets.get(b).get(hash);
+            if (fresh != null) candidates.addAll(fresh);
+        }
+        candidates.remove(id);
+
+        Map<Integer, Double> scores = new HashMap<>();
+        for (int other : candidates) scores.put(other, estimate(sig, signatures.get(other)));
+        List<Integer> ranked = new ArrayList<>(scores.keySet());
+        ranked.sort(Comparator.comparing((Integer o) -> scores.get(o)).reversed().thenComparing(Comparator.reverseOrder()));
+        return ranked.size() > k ? new ArrayList<>(ranked.subList(0, k)) : ranked;
+    }
+
+    /**
+     * Exact Jaccard over every recipe; only used while the index is being rebuilt.
+     */
+    public static List<Integer> scan(Recipe target, Collection<Recipe> recipes, int k) {
+        Set<String> mine = features(target);
+        if (mine.isEmpty() || k <= 0) return new ArrayList<>();
+        Map<Integer, Double> scores = new HashMap<>();
+        for (Recipe r : recipes) {
+            if (r.getId() == target.getId()) continue;
+            Set<String> theirs = features(r);
+            Set<String> union = new HashSet<>(mine);
+            union.addAll(theirs);
+            theirs.retainAll(mine);
+            if (!theirs.isEmpty()) scores.put(r.getId(), (double) theirs.size() / union.size());
+        }
+        List<Integer> ranked = new ArrayList<>(scores.keySet());
+        ranked.sort(Comparator.comparing((Integer o) -> scores.get(o)).reversed().thenComparing(Comparator.reverseOrder()));
+        return ranked.size() > k ? new ArrayList<>(ranked.subList(0, k)) : ranked;
+    }
+
+    public static double estimate(int[] a, int[] b) {
+        int same = 0;
+        for (int i = 0; i < NUM_HASHES; i++) if (a[i] == b[i]) same++;
+        return (double) same / NUM_HASHES;
+    }
+
+    /* --------- Signatures --------- */
+    public static Set<String> features(Recipe r) {
+        Set<String> out = new HashSet<>();
+        for (String ing : r.getIngredients()) {
+            String n = normalizeIngredient(ing);
+            if (!n.isEmpty()) out.add(n);
+        }
+        for (String tag : r.getTags()) {
+            String t = tag.trim().toLowerCase();
+            if (!t.isEmpty()) out.add("#" + t);
+        }
+        return out;
+    }
+
+    /**
+     * Lowercases an ingredient line and drops quantities, units and punctuation,
+     * so "2 cups Basmati rice," and "basmati rice" map to the same feature.
+     */
+    public static String normalizeIngredient(String ing) {
+        StringBuilder sb = new StringBuilder();
+        for (String tok : RecipeSearchIndex.tokenize(ing)) {
+            if (tok.chars().allMatch(Character::isDigit) || UNITS.contains(tok)) continue;
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(tok);
+        }
+        return sb.toString();
+    }
+
+    public int[] signature(Set<String> features) {
+        int[] sig = new int[NUM_HASHES];
+        Arrays.fill(sig, Integer.MAX_VALUE);
+        for (String f : features) {
+            long x = f.hashCode() & 0x7fffffffL;
+            for (int i = 0; i < NUM_HASHES; i++) {
+                int h = (int) ((hashA[i] * x + hashB[i]) % PRIME);
+                if (h < sig[i]) sig[i] = h;
+            }
+        }
+        return sig;
+    }
+
+    /* --------- Persistence --------- */
+    void writeTo(DataOutputStream out) throws IOException {
+        compact();
+        out.writeInt(signatures.size());
+        for (Map.Entry<Integer, int[]> e : signatures.entrySet()) {
+            out.writeInt(e.getKey());
+            for (int h : e.getValue()) out.writeInt(h);
+        }
+        for (long[] band : packed) {
+            for (long v : band) out.writeLong(v);
+        }
+    }
+
+    static SimilarityIndex readFrom(ByteBuffer buf) {
+        SimilarityIndex idx = new SimilarityIndex();
+        int n = buf.getInt();
+        IntBuffer ints = buf.asIntBuffer();
+        for (int i = 0; i < n; i++) {
+            int id = ints.get();
+            int[] sig = new int[NUM_HASHES];
+            ints.get(sig);
+            idx.signatures.put(id, sig);
+        }
+        buf.position(buf.position() + 4 * n * (NUM_HASHES + 1));
+        for (int b = 0; b < BANDS; b++) {
+            long[] band = new long[n];
+            buf.asLongBuffer().get(band);
+            buf.position(buf.position() + 8 * n);
+            idx.packed[b] = band;
+        }
+        return idx;
+    }
+
+    /* --------- Buckets --------- */
+    private static int bandHash(int[] sig, int band) {
+        int h = 17;
+        for (int i = band * ROWS; i < (band + 1) * ROWS; i++) h = 31 * h + sig[i];
+        return h;
+    }
+
+    private static long pack(int hash, int id) {
+        return ((long) hash << 32) | (id & 0xffffffffL);
+    }
+
+    private static int lowerBound(long[] a, long key) {
+        int lo = 0, hi = a.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
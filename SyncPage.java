@@ -0,0 +1,28 @@
+package platform;
+
+import platform.models.Recipe;
+
+import java.util.List;
+
+/**
+ * One page of {@link Platform#recipesChangedSince} results. Pass
+ * {@link #getNextCursor()} back to continue from where this page stopped.
+ */
+public class SyncPage {
+    private final List<Recipe> changed;   // added or edited, in change order
+    private final List<Integer> deleted;  // ids of recipes deleted in the window
+    private final String nextCursor;
+    private final boolean hasMore;
+
+    public SyncPage(List<Recipe> changed, List<Integer> deleted, String nextCursor, boolean hasMore) {
+        this.changed = changed;
+        this.deleted = deleted;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<Recipe> getChanged() { return changed; }
+    public List<Integer> getDeleted() { return deleted; }
+    public String getNextCursor() { return nextCursor; }
+    public boolean hasMore() { return hasMore; }
+}
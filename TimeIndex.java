@@ -0,0 +1,163 @@
+package platform;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Ordered secondary index of recipe ids by a timestamp. Entries with equal
+ * timestamps are ordered by id, so every (time, id) position is unique.
+ */
+public class TimeIndex {
+    private final TreeSet<Entry> entries = new TreeSet<>();
+    private final Map<Integer, Entry> byId = new HashMap<>();
+
+    public void put(int id, LocalDateTime time) {
+        remove(id);
+        Entry e = new Entry(time, id);
+        entries.add(e);
+        byId.put(id, e);
+    }
+
+    public void remove(int id) {
+        Entry e = byId.remove(id);
+        if (e != null) entries.remove(e);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public LocalDateTime get(int id) {
+        Entry e = byId.get(id);
+        return e == null ? null : e.time;
+    }
+
+    /** Ids from newest to oldest. */
+    public List<Integer> newestFirst(int limit) {
+        List<Integer> out = new ArrayList<>();
+        for (Iterator<Entry> it = entries.descendingIterator(); it.hasNext() && out.size() < limit; ) {
+            out.add(it.next().id);
+        }
+        return out;
+    }
+
+    /** Ids with {@code from <= time < to}, oldest first. */
+    public List<Integer> between(LocalDateTime from, LocalDateTime to, int limit) {
+        List<Integer> out = new ArrayList<>();
+        if (!from.isBefore(to)) return out;
+        for (Entry e : entries.subSet(new Entry(from, Integer.MIN_VALUE), new Entry(to, Integer.MIN_VALUE))) {
+            if (out.size() >= limit) break;
+            out.add(e.id);
+        }
+        return out;
+    }
+
+    /**
+     * Entries at or after {@code since}, oldest first. When {@code cursor} is
+     * given, the scan resumes just past the entry the cursor was taken from.
+     */
+    List<Entry> since(LocalDateTime since, String cursor, int limit) {
+        List<Entry> out = new ArrayList<>();
+        for (Entry e : entries.tailSet(startOf(since, cursor), true)) {
+            if (out.size() >= limit) break;
+            out.add(e);
+        }
+        return out;
+    }
+
+    // first position a since/cursor query can return; a cursor's own entry is skipped
+    private static Entry startOf(LocalDateTime since, String cursor) {
+        Entry start = new Entry(since, Integer.MIN_VALUE);
+        if (cursor == null) return start;
+        Entry c = parseCursor(cursor);
+        return c.compareTo(start) >= 0 ? new Entry(c.time, c.id + 1) : start;
+    }
+
+    /* --------- Scans, used while the index is being rebuilt --------- */
+
+    /** {@link #between} over unindexed entries. */
+    static List<Integer> scanBetween(Iterable<Entry> all, LocalDateTime from, LocalDateTime to, int limit) {
+        List<Integer> out = new ArrayList<>();
+        if (!from.isBefore(to)) return out;
+        for (Entry e : oldest(all, new Entry(from, Integer.MIN_VALUE), new Entry(to, Integer.MIN_VALUE), limit)) out.add(e.id);
+        return out;
+    }
+
+    /** {@link #since} over unindexed entries. */
+    static List<Entry> scanSince(Iterable<Entry> all, LocalDateTime since, String cursor, int limit) {
+        return oldest(all, startOf(since, cursor), null, limit);
+    }
+
+    // the limit oldest entries in [lo, hi), kept in a bounded heap; hi may be null
+    private static List<Entry> oldest(Iterable<Entry> all, Entry lo, Entry hi, int limit) {
+        if (limit <= 0) return new ArrayList<>();
+        PriorityQueue<Entry> newestFirst = new PriorityQueue<>(Collections.reverseOrder());
+        for (Entry e : all) {
+            if (e.compareTo(lo) < 0 || (hi != null && e.compareTo(hi) >= 0)) continue;
+            newestFirst.add(e);
+            if (newestFirst.size() > limit) newestFirst.poll();
+        }
+        List<Entry> out = new ArrayList<>(newestFirst);
+        Collections.sort(out);
+        return out;
+    }
+
+    /* --------- Cursors --------- */
+    static String cursorOf(Entry e) {
+        return e.time.toEpochSecond(ZoneOffset.UTC) + "." + e.time.getNano() + "." + e.id;
+    }
+
+    static Entry parseCursor(String cursor) {
+        String[] parts = cursor.split("\\.");
+        if (parts.length != 3) throw new IllegalArgumentException("Malformed cursor: " + cursor);
+        try {
+            LocalDateTime time = LocalDateTime.ofEpochSecond(Long.parseLong(parts[0]), Integer.parseInt(parts[1]), ZoneOffset.UTC);
+            return new Entry(time, Integer.parseInt(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed cursor: " + cursor, e);
+        }
+    }
+
+    /* --------- Persistence --------- */
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(entries.size());
+        for (Entry e : entries) {
+            out.writeInt(e.id);
+            out.writeLong(e.time.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(e.time.getNano());
+        }
+    }
+
+    static TimeIndex readFrom(ByteBuffer buf) {
+        TimeIndex idx = new TimeIndex();
+        int n = buf.getInt();
+        for (int i = 0; i < n; i++) {
+            int id = buf.getInt();
+            long sec = buf.getLong();
+            int nano = buf.getInt();
+            idx.put(id, LocalDateTime.ofEpochSecond(sec, nano, ZoneOffset.UTC));
+        }
+        return idx;
+    }
+
+    /* ---- (time, id) key ---- */
+    static final class Entry implements Comparable<Entry> {
+        final LocalDateTime time;
+        final int id;
+
+        Entry(LocalDateTime time, int id) {
+            this.time = time;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Entry o) {
+            int c = time.compareTo(o.time);
+            return c != 0 ? c : Integer.compare(id, o.id);
+        }
+    }
+}